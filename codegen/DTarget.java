@@ -60,30 +60,39 @@ public class DTarget extends Target {
         return Tool.VERSION; // Java and tool versions move in lock step
     }
 
+    /**
+     * The serialized ATN is emitted as an {@code immutable(ubyte)[]} in the
+     * compact encoding read by {@code ATNDeserializer.deserialize(const(ubyte)[])}:
+     * every value is an unsigned LEB128 varint. The values are shifted by 2
+     * by the ATN serializer, so the frequent small values take one byte.
+     * Printable bytes are emitted as they are, all others as {@code \xNN}
+     * escapes of a D string literal.
+     */
     @Override
     public String encodeIntAsCharEscape(int v) {
         if (v < Character.MIN_VALUE || v > Character.MAX_VALUE) {
             throw new IllegalArgumentException(String.format("Cannot encode the specified value: %d", v));
         }
 
-        if (v >= 0 && v < targetCharValueEscape.length && targetCharValueEscape[v] != null) {
-            return targetCharValueEscape[v];
-        }
-
-        if (v >= 0x20 && v < 127) {
-            return String.valueOf((char)v);
-        }
+        StringBuilder buf = new StringBuilder();
+        do {
+            int b = v & 0x7f;
+            v >>>= 7;
+            if (v != 0) {
+                b |= 0x80;
+            }
+            appendByte(b, buf);
+        } while (v != 0);
+        return buf.toString();
+    }
 
-        if ( v>=55296 && v<=55551 ) {
-            String octs = Integer.toOctalString(v);
-            return "["+ octs + "]";
+    private static void appendByte(int b, StringBuilder buf) {
+        if (b >= 0x20 && b < 0x7f && b != '"' && b != '\\') {
+            buf.append((char)b);
         }
-
-        if (v > 0x7f) {
-            return "\\u"+Integer.toHexString(v|0x10000).substring(1,5);
+        else {
+            buf.append(String.format("\\x%02x", b));
         }
-        else
-            return "\\x"+Integer.toHexString(v|0x10000).substring(3,5);
     }
 
     public Set<String> getBadWords() {
@@ -102,9 +111,8 @@ public class DTarget extends Target {
 
     @Override
     public int getSerializedATNSegmentLimit() {
-        // 65535 is the class file format byte limit for a UTF-8 encoded string literal
-        // 3 is the maximum number of bytes it takes to encode a value in the range 0-0xFFFF
-        return 65535 / 3;
+        // D has no limit on the length of a string literal
+        return Integer.MAX_VALUE;
     }
 
     @Override
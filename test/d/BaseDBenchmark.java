@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2012-2020 The ANTLR Project. All rights reserved.
+ * Use of this file is governed by the BSD 3-clause license that
+ * can be found in the LICENSE.txt file in the project root.
+ */
+package org.antlr.v4.test.runtime.d;
+
+import org.antlr.v4.test.runtime.ErrorQueue;
+import org.stringtemplate.v4.ST;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.antlr.v4.test.runtime.BaseRuntimeTest.antlrOnString;
+import static org.antlr.v4.test.runtime.BaseRuntimeTest.writeFile;
+
+/**
+ * Benchmark harness for the D target.
+ *
+ * <p>Generates lexer and parser for a grammar of the runtime repository,
+ * builds them with {@code ldc2 -O -release} together with a driver and runs
+ * warmup and measured iterations over an input file. The driver prints one
+ * JSON object with tokens/sec, parse throughput, DFA sizes and peak RSS.</p>
+ */
+public class BaseDBenchmark extends BaseDTest {
+
+    /**
+     * One grammar of the corpus together with its input
+     */
+    public static class Benchmark {
+        public final String name;
+        /** directory relative to the runtime root */
+        public final String directory;
+        /** grammar files, a lexer grammar before the parser grammar using it */
+        public final String[] grammarFiles;
+        public final String lexerName;
+        public final String parserName;
+        public final String startRule;
+        /** input file in {@link #directory}, or null to use {@link #input} */
+        public final String inputFile;
+        public final String input;
+
+        public Benchmark(String name, String directory, String[] grammarFiles,
+                         String lexerName, String parserName, String startRule,
+                         String inputFile, String input)
+        {
+            this.name = name;
+            this.directory = directory;
+            this.grammarFiles = grammarFiles;
+            this.lexerName = lexerName;
+            this.parserName = parserName;
+            this.startRule = startRule;
+            this.inputFile = inputFile;
+            this.input = input;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static String repeat(String s, int n) {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            buf.append(s);
+        }
+        return buf.toString();
+    }
+
+    public static final Benchmark[] CORPUS = {
+        new Benchmark("TimeTable", "doc/examples/time_table", new String[] {"TimeTable.g4"},
+                      "TimeTableLexer", "TimeTableParser", "linie", "RB27_at_Karow.txt", null),
+        new Benchmark("XML", "doc/examples/xml", new String[] {"XMLLexer.g4", "XMLParser.g4"},
+                      "XMLLexer", "XMLParser", "document", "web.xml", null),
+        new Benchmark("Expr", "doc/examples/simple_expression", new String[] {"Expr.g4"},
+                      "ExprLexer", "ExprParser", "prog", null,
+                      repeat("100+2*(3-x)/y\n(a+b)*(c-d)/42\n", 500)),
+        new Benchmark("RuleTranslator", "unittest/complex", new String[] {"RuleTranslator.g4"},
+                      "RuleTranslatorLexer", "RuleTranslatorParser", "file_input", "complex.rule", null),
+        new Benchmark("SeparatedRule", "unittest/separated_grammar",
+                      new String[] {"RuleLexer.g4", "RuleParser.g4"},
+                      "RuleLexer", "RuleParser", "file_input", "declaration.rule", null),
+        new Benchmark("Hello", "unittest/simple", new String[] {"Hello.g4"},
+                      "HelloLexer", "HelloParser", "r", "hello.txt", null),
+    };
+
+    /**
+     * Generate, build and run {@code benchmark}.
+     *
+     * @return the JSON line printed by the driver, or null if a step failed
+     */
+    public String benchmark(Benchmark benchmark, int warmupIterations, int measuredIterations)
+        throws IOException
+    {
+        File directory = new File(locateRuntime(), benchmark.directory);
+        for (String grammarFile : benchmark.grammarFiles) {
+            String grammar = new String(Files.readAllBytes(new File(directory, grammarFile).toPath()),
+                                        StandardCharsets.UTF_8);
+            ErrorQueue equeue = antlrOnString(getTempDirPath(), "D", grammarFile, grammar, false,
+                                              "-no-listener");
+            if (!equeue.errors.isEmpty()) {
+                System.err.println("can't generate " + grammarFile + ": " + equeue.errors);
+                return null;
+            }
+        }
+        String input = benchmark.inputFile != null ?
+            new String(Files.readAllBytes(new File(directory, benchmark.inputFile).toPath()),
+                       StandardCharsets.UTF_8) :
+            benchmark.input;
+        writeFile(getTempDirPath(), "input", input);
+        writeBenchmarkFile(benchmark, warmupIterations, measuredIterations);
+        return execModule("Test.d", "-O", "-release");
+    }
+
+    protected void writeBenchmarkFile(Benchmark benchmark, int warmupIterations, int measuredIterations) {
+        ST outputFileST = new ST(
+            "import core.sys.posix.sys.resource : getrusage, rusage, RUSAGE_SELF;\n"
+                + "import std.datetime.stopwatch : AutoStart, StopWatch;\n"
+                + "import std.file : readText;\n"
+                + "import std.stdio : writefln;\n"
+                + "\n"
+                + "import antlr.v4.runtime.ANTLRInputStream;\n"
+                + "import antlr.v4.runtime.CommonTokenStream;\n"
+                + "import antlr.v4.runtime.dfa.DFA;\n"
+                + "import <lexerName> : <lexerName>;\n"
+                + "import <parserName> : <parserName>;\n"
+                + "\n"
+                + "size_t dfaStates(DFA[] decisionToDFA) {\n"
+                + "  size_t n = 0;\n"
+                + "  foreach (dfa; decisionToDFA)\n"
+                + "    n += dfa.states.length;\n"
+                + "  return n;\n"
+                + "}\n"
+                + "\n"
+                + "int main(string[] args) {\n"
+                + "  auto text = readText(args[1]);\n"
+                + "  size_t tokenCount;\n"
+                + "  size_t lexerDFASize;\n"
+                + "  size_t parserDFASize;\n"
+                + "\n"
+                + "  void lexOnce() {\n"
+                + "    auto lexer = new <lexerName>(new ANTLRInputStream(text));\n"
+                + "    auto tokens = new CommonTokenStream(lexer);\n"
+                + "    tokens.fill;\n"
+                + "    tokenCount = tokens.size;\n"
+                + "    lexerDFASize = dfaStates(lexer.getInterpreter.decisionToDFA);\n"
+                + "  }\n"
+                + "\n"
+                + "  void parseOnce() {\n"
+                + "    auto lexer = new <lexerName>(new ANTLRInputStream(text));\n"
+                + "    auto parser = new <parserName>(new CommonTokenStream(lexer));\n"
+                + "    parser.<startRule>;\n"
+                + "    parserDFASize = dfaStates(parser.getInterpreter.decisionToDFA);\n"
+                + "  }\n"
+                + "\n"
+                + "  foreach (i; 0 .. <warmup>) {\n"
+                + "    lexOnce;\n"
+                + "    parseOnce;\n"
+                + "  }\n"
+                + "  auto sw = StopWatch(AutoStart.yes);\n"
+                + "  foreach (i; 0 .. <iterations>)\n"
+                + "    lexOnce;\n"
+                + "  double lexSeconds = sw.peek.total!\"usecs\" / 1e6;\n"
+                + "  sw.reset;\n"
+                + "  foreach (i; 0 .. <iterations>)\n"
+                + "    parseOnce;\n"
+                + "  double parseSeconds = sw.peek.total!\"usecs\" / 1e6;\n"
+                + "\n"
+                + "  rusage usage;\n"
+                + "  getrusage(RUSAGE_SELF, &usage);\n"
+                + "  writefln!(`{\"benchmark\":\"<name>\",\"iterations\":%d,\"inputBytes\":%d,\"tokens\":%d,`\n"
+                + "      ~ `\"tokensPerSecond\":%.1f,\"parsesPerSecond\":%.3f,\"parseBytesPerSecond\":%.1f,`\n"
+                + "      ~ `\"lexerDFAStates\":%d,\"parserDFAStates\":%d,\"peakRSSKiB\":%d}`)(\n"
+                + "      <iterations>, text.length, tokenCount,\n"
+                + "      tokenCount * <iterations> / lexSeconds,\n"
+                + "      <iterations> / parseSeconds,\n"
+                + "      text.length * <iterations> / parseSeconds,\n"
+                + "      lexerDFASize, parserDFASize, usage.ru_maxrss);\n"
+                + "  return 0;\n"
+                + "}\n");
+        outputFileST.add("name", benchmark.name);
+        outputFileST.add("lexerName", benchmark.lexerName);
+        outputFileST.add("parserName", benchmark.parserName);
+        outputFileST.add("startRule", benchmark.startRule);
+        outputFileST.add("warmup", warmupIterations);
+        outputFileST.add("iterations", measuredIterations);
+        writeFile(getTempDirPath(), "Test.d", outputFileST.render());
+    }
+}
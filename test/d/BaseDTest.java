@@ -528,6 +528,14 @@ public class BaseDTest extends BaseRuntimeTestSupport implements RuntimeTestSupp
     static Boolean runtimeBuiltOnce = false;
 
     public String execModule(String fileName) {
+        return execModule(fileName, new String[0]);
+    }
+
+    /**
+     * Build all D files in the temp dir with the additional
+     * {@code compilerOptions} and run the binary on the input file.
+     */
+    public String execModule(String fileName, String... compilerOptions) {
         String runtimePath = locateRuntime();
         String includePath = runtimePath + "/source";
         //System.out.println("runtimePath -> " + runtimePath + "\nincludePath -> "+ includePath);
@@ -574,6 +582,7 @@ public class BaseDTest extends BaseRuntimeTestSupport implements RuntimeTestSupp
         try {
             List<String> command2 = new ArrayList<String>(Arrays.asList("ldc2", "-link-defaultlib-shared",
                 "-I", includePath, "-L-L" + runtimePath + "/lib", "-L-lantlr-d", "-of", "test"));
+            command2.addAll(Arrays.asList(compilerOptions));
             command2.addAll(allCppFiles(getTempDirPath()));
             if (runCommand(command2.toArray(new String[0]), getTempDirPath(), "building test binary", true) == null) {
                 return null;
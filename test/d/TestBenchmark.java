@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2012-2020 The ANTLR Project. All rights reserved.
+ * Use of this file is governed by the BSD 3-clause license that
+ * can be found in the LICENSE.txt file in the project root.
+ */
+
+package org.antlr.v4.test.runtime.d;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs the {@link BaseDBenchmark#CORPUS} and appends one JSON line per
+ * grammar to the file named by the system property
+ * {@code antlr4-d-benchmark}. Without that property the benchmarks are
+ * skipped. {@code antlr4-d-benchmark-warmup} and
+ * {@code antlr4-d-benchmark-iterations} override the number of iterations.
+ */
+@RunWith(Parameterized.class)
+public class TestBenchmark {
+
+    public static final String OUTPUT_PROPERTY = "antlr4-d-benchmark";
+
+    private final BaseDBenchmark.Benchmark benchmark;
+
+    private final BaseDBenchmark delegate = new BaseDBenchmark();
+
+    public TestBenchmark(BaseDBenchmark.Benchmark benchmark) {
+        this.benchmark = benchmark;
+    }
+
+    @Parameterized.Parameters(name="{0}")
+    public static BaseDBenchmark.Benchmark[] getBenchmarks() {
+        return BaseDBenchmark.CORPUS;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(System.getProperty(OUTPUT_PROPERTY) != null);
+        delegate.testSetUp();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (System.getProperty(OUTPUT_PROPERTY) != null) {
+            delegate.testTearDown();
+            delegate.eraseTempDir();
+        }
+    }
+
+    @Test
+    public void testBenchmark() throws IOException {
+        int warmup = Integer.getInteger(OUTPUT_PROPERTY + "-warmup", 20);
+        int iterations = Integer.getInteger(OUTPUT_PROPERTY + "-iterations", 50);
+        String result = delegate.benchmark(benchmark, warmup, iterations);
+        assertNotNull("benchmark " + benchmark + " failed: " + delegate.getParseErrors(), result);
+        File output = new File(System.getProperty(OUTPUT_PROPERTY));
+        synchronized (TestBenchmark.class) {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(output, true),
+                                                        StandardCharsets.UTF_8)) {
+                writer.write(result.trim());
+                writer.write('\n');
+            }
+        }
+    }
+}